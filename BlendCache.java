@@ -0,0 +1,373 @@
+package BlendMode;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This file provides a cache in front of BlendMode for compositions that are repeated with the same inputs,
+ * e.g. a fixed watermark over popular images. Entries are keyed by an xxHash64 of the background and foreground
+ * pixels plus the Blend Mode and opacity, held in memory up to a byte limit with least recently used eviction,
+ * and optionally written to a local directory so they survive eviction and restarts.
+ */
+public class BlendCache {
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * Approximate bytes held by an entry in addition to its pixels.
+     */
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+    private final File directory;
+    private final LinkedHashMap<Key, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a memory only cache.
+     * @param maxBytes Maximum bytes of composite pixels held in memory.
+     */
+    public BlendCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Creates a cache with an on-disk tier. Every composite is also written to the directory, and memory misses
+     * are looked up there before blending. The directory is not bounded and is left for the caller to manage.
+     * @param maxBytes Maximum bytes of composite pixels held in memory.
+     * @param directory Local directory for the on-disk tier, or null for a memory only cache.
+     */
+    public BlendCache(long maxBytes, File directory) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create cache directory: " + directory);
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * Method to create a composite image, reusing a cached result if the same inputs were blended before.
+     * Like BlendMode, the composite is drawn onto and returned as the background image.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @return Returns a BufferedImage Composite.
+     */
+    public BufferedImage blend(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode) {
+        int width = bg.getWidth();
+        int height = bg.getHeight();
+
+        Key key = new Key(hash(bg, width, height), hash(fg, width, height), width, height, mode, opacity);
+
+        int[] pixels = get(key);
+        if (pixels == null) {
+            pixels = readDisk(key);
+            if (pixels != null) {
+                synchronized (this) {
+                    diskHits++;
+                }
+                put(key, pixels);
+            }
+        }
+
+        if (pixels != null) {
+            bg.setRGB(0, 0, width, height, pixels, 0, width);
+            return bg;
+        }
+
+        synchronized (this) {
+            misses++;
+        }
+        BlendMode.blend(bg, fg, opacity, mode);
+        pixels = bg.getRGB(0, 0, width, height, null, 0, width);
+        put(key, pixels);
+        writeDisk(key, pixels);
+        return bg;
+    }
+
+    /**
+     * @return Share of lookups served from memory or disk (0 - 1).
+     */
+    public synchronized double hitRate() {
+        long lookups = hits + diskHits + misses;
+        return lookups == 0 ? 0 : (double) (hits + diskHits) / lookups;
+    }
+
+    /**
+     * @return Lookups served from memory.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return Lookups served from the on-disk tier.
+     */
+    public synchronized long diskHits() {
+        return diskHits;
+    }
+
+    /**
+     * @return Lookups that required blending.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return Approximate bytes currently held in memory.
+     */
+    public synchronized long bytesHeld() {
+        return bytes;
+    }
+
+    /**
+     * @return Entries evicted from memory since the cache was created.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Removes all entries held in memory. The on-disk tier is left untouched.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BlendCache[entries=%d, bytes=%d, hitRate=%.3f, evictions=%d]",
+                entries.size(), bytes, hitRate(), evictions);
+    }
+
+    private synchronized int[] get(Key key) {
+        int[] pixels = entries.get(key);
+        if (pixels != null) {
+            hits++;
+        }
+        return pixels;
+    }
+
+    private synchronized void put(Key key, int[] pixels) {
+        long size = size(pixels);
+        if (size > maxBytes || entries.containsKey(key)) {
+            return;
+        }
+        entries.put(key, pixels);
+        bytes += size;
+
+        // Access ordered map, the first entries are the least recently used
+        Iterator<Map.Entry<Key, int[]>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Key, int[]> eldest = iterator.next();
+            bytes -= size(eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static long size(int[] pixels) {
+        return pixels.length * 4L + ENTRY_OVERHEAD;
+    }
+
+    private File diskFile(Key key) {
+        return new File(directory, key.fileName());
+    }
+
+    private int[] readDisk(Key key) {
+        if (directory == null) {
+            return null;
+        }
+        File file = diskFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width != key.width || height != key.height) {
+                return null;
+            }
+            int[] pixels = new int[width * height];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = in.readInt();
+            }
+            return pixels;
+        } catch (IOException e) {
+            // An unreadable or truncated file is treated as a miss and rewritten after blending
+            return null;
+        }
+    }
+
+    private void writeDisk(Key key, int[] pixels) {
+        if (directory == null) {
+            return;
+        }
+        File file = diskFile(key);
+        File temp = new File(directory, key.fileName() + ".tmp" + Thread.currentThread().getId());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(key.width);
+            out.writeInt(key.height);
+            for (int pixel : pixels) {
+                out.writeInt(pixel);
+            }
+        } catch (IOException e) {
+            // The on-disk tier is best effort, the composite is still held in memory
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Computes the xxHash64 of the packed ARGB pixels of an image region, read as little endian bytes.
+     * @param image The image to hash.
+     * @param width Width of the region starting at 0, 0.
+     * @param height Height of the region starting at 0, 0.
+     * @return 64 bit content hash.
+     */
+    static long hash(BufferedImage image, int width, int height) {
+        return hash(image.getRGB(0, 0, width, height, null, 0, width), 0);
+    }
+
+    /**
+     * Computes the xxHash64 of packed ARGB pixels, read as little endian bytes.
+     * @param pixels Packed ARGB pixels.
+     * @param seed Hash seed.
+     * @return 64 bit content hash.
+     */
+    static long hash(int[] pixels, long seed) {
+        int length = pixels.length;
+        int i = 0;
+        long hash;
+
+        if (length >= 8) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            for (; i <= length - 8; i += 8) {
+                v1 = round(v1, lane(pixels, i));
+                v2 = round(v2, lane(pixels, i + 2));
+                v3 = round(v3, lane(pixels, i + 4));
+                v4 = round(v4, lane(pixels, i + 6));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME64_5;
+        }
+
+        hash += length * 4L;
+
+        for (; i <= length - 2; i += 2) {
+            hash ^= round(0, lane(pixels, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (i < length) {
+            hash ^= (pixels[i] & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long lane(int[] pixels, int i) {
+        return (pixels[i] & 0xFFFFFFFFL) | ((long) pixels[i + 1] << 32);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    /**
+     * Identifies a composite by the content of its inputs and the blend parameters.
+     */
+    private static final class Key {
+        private final long bgHash;
+        private final long fgHash;
+        private final int width;
+        private final int height;
+        private final BlendMode.Mode mode;
+        private final long opacityBits;
+
+        private Key(long bgHash, long fgHash, int width, int height, BlendMode.Mode mode, double opacity) {
+            this.bgHash = bgHash;
+            this.fgHash = fgHash;
+            this.width = width;
+            this.height = height;
+            this.mode = mode;
+            this.opacityBits = Double.doubleToLongBits(opacity);
+        }
+
+        private String fileName() {
+            return String.format("%016x-%016x-%dx%d-%s-%016x.blend", bgHash, fgHash, width, height,
+                    mode.name().toLowerCase(), opacityBits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return bgHash == key.bgHash && fgHash == key.fgHash && width == key.width && height == key.height
+                    && mode == key.mode && opacityBits == key.opacityBits;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(bgHash);
+            result = 31 * result + Long.hashCode(fgHash);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + mode.hashCode();
+            result = 31 * result + Long.hashCode(opacityBits);
+            return result;
+        }
+    }
+}
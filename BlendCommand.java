@@ -0,0 +1,354 @@
+package BlendMode;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This file provides a command line entry point for blending a directory of background images with a single
+ * foreground image.
+ * <pre>
+ * java BlendMode.BlendCommand --mode overlay --opacity 0.6 --bg dir/ --fg overlay.png --out out/ --threads N
+ * </pre>
+ * Background files are read one at a time as worker threads become free, so only a few images are held in memory.
+ * Existing output files are skipped, so an interrupted run can be resumed by running the same command again. The
+ * mode, opacity, background path and foreground content are recorded in the output directory, and a run with
+ * different parameters is refused.
+ */
+public class BlendCommand {
+    private static final String USAGE = "Usage: java BlendMode.BlendCommand --mode <mode> [--opacity 0-1]"
+            + " --bg <file|dir> --fg <file> --out <dir> [--threads N]";
+
+    /**
+     * File in the output directory recording the parameters its images were blended with.
+     */
+    private static final String MANIFEST = ".blend-manifest";
+
+    private final BlendMode.Mode mode;
+    private final double opacity;
+    private final Path bg;
+    private final Path fg;
+    private final Path out;
+    private final int threads;
+
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicLong blendNanos = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final AtomicLong pixels = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BlendCommand(BlendMode.Mode mode, double opacity, Path bg, Path fg, Path out, int threads) {
+        this.mode = mode;
+        this.opacity = opacity;
+        this.bg = bg;
+        this.fg = fg;
+        this.out = out;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the command and exits with 0 on success, 1 if any image failed and 2 on invalid arguments.
+     * @param args Command line arguments, see the class documentation.
+     */
+    public static void main(String[] args) {
+        BlendCommand command;
+        try {
+            command = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            System.exit(command.run() ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parses command line arguments.
+     * @param args Command line arguments.
+     * @return The configured command.
+     * @throws IllegalArgumentException If an argument is missing or invalid.
+     */
+    static BlendCommand parse(String[] args) {
+        BlendMode.Mode mode = null;
+        double opacity = 1;
+        Path bg = null;
+        Path fg = null;
+        Path out = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            try {
+                switch (option) {
+                    case "--mode":
+                        mode = parseMode(value(args, ++i, option));
+                        break;
+                    case "--opacity":
+                        opacity = Double.parseDouble(value(args, ++i, option));
+                        break;
+                    case "--bg":
+                        bg = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--fg":
+                        fg = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--out":
+                        out = Paths.get(value(args, ++i, option));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i, option));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + option + ": " + args[i]);
+            }
+        }
+
+        if (mode == null || bg == null || fg == null || out == null) {
+            throw new IllegalArgumentException("--mode, --bg, --fg and --out are required");
+        }
+        if (opacity < 0 || opacity > 1) {
+            throw new IllegalArgumentException("--opacity must be between 0 and 1: " + opacity);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1: " + threads);
+        }
+        return new BlendCommand(mode, opacity, bg, fg, out, threads);
+    }
+
+    /**
+     * Returns the value following an option.
+     * @param args Command line arguments.
+     * @param index Index of the value.
+     * @param option The option the value belongs to.
+     * @return The value.
+     * @throws IllegalArgumentException If the option is the last argument.
+     */
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Resolves a Blend Mode from its name, e.g. overlay, colorBurn, color-burn or COLOR_BURN.
+     * @param name The Blend Mode name.
+     * @return The matching Blend Mode.
+     * @throws IllegalArgumentException If no Blend Mode matches.
+     */
+    static BlendMode.Mode parseMode(String name) {
+        String normalized = name.replace("-", "").replace("_", "").toUpperCase(Locale.ROOT);
+        for (BlendMode.Mode mode : BlendMode.Mode.values()) {
+            if (mode.name().replace("_", "").equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown mode: " + name);
+    }
+
+    /**
+     * Blends every background image and prints the throughput report.
+     * @return True if no image failed.
+     * @throws IOException If the foreground or the background directory cannot be read, or the output directory
+     * holds the output of a run with different parameters.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    boolean run() throws IOException, InterruptedException {
+        BufferedImage fgImage = ImageIO.read(fg.toFile());
+        if (fgImage == null) {
+            throw new IOException("Unsupported image format: " + fg);
+        }
+        Files.createDirectories(out);
+        checkManifest(fgImage);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // Limits how many background images are queued or in flight, so the directory is streamed
+        Semaphore permits = new Semaphore(threads * 2);
+        long start = System.nanoTime();
+
+        try {
+            if (Files.isDirectory(bg)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(bg, Files::isRegularFile)) {
+                    for (Path file : files) {
+                        permits.acquire();
+                        executor.execute(() -> {
+                            try {
+                                process(file, fgImage);
+                            } finally {
+                                permits.release();
+                            }
+                        });
+                    }
+                }
+            } else {
+                executor.execute(() -> process(bg, fgImage));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        report(System.nanoTime() - start);
+        return failed.get() == 0;
+    }
+
+    /**
+     * Records the blend parameters in the output directory, or checks them against the parameters of an earlier run.
+     * Existing outputs are only skipped when they were created by the same command.
+     * @param fgImage The decoded foreground image.
+     * @throws IOException If the output directory was written with different parameters, or the manifest cannot be
+     * read or written.
+     */
+    private void checkManifest(BufferedImage fgImage) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("mode", mode.name());
+        manifest.setProperty("opacity", Double.toString(opacity));
+        manifest.setProperty("bg", bg.toAbsolutePath().normalize().toString());
+        manifest.setProperty("fg", fg.toAbsolutePath().normalize().toString());
+        manifest.setProperty("fgSize", fgImage.getWidth() + "x" + fgImage.getHeight());
+        // The content hash catches a foreground edited in place at the same size
+        manifest.setProperty("fgHash", Long.toHexString(
+                BlendCache.hash(fgImage, fgImage.getWidth(), fgImage.getHeight())));
+
+        Path file = out.resolve(MANIFEST);
+        if (Files.exists(file)) {
+            Properties previous = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                previous.load(reader);
+            }
+            if (!previous.equals(manifest)) {
+                throw new IOException(out + " contains the output of a different run (" + previous
+                        + "), use a different --out directory");
+            }
+            return;
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            manifest.store(writer, "blend parameters of this output directory");
+        }
+    }
+
+    /**
+     * Blends a single background image and writes the composite to the output directory.
+     * @param file The background image.
+     * @param fgImage The decoded foreground image.
+     */
+    private void process(Path file, BufferedImage fgImage) {
+        String name = file.getFileName().toString();
+        Path target = out.resolve(name);
+        try {
+            // Checked from the file header only, so stray files, e.g. a text file, are not decoded on every resume
+            if (!isImage(file)) {
+                ignored.incrementAndGet();
+                return;
+            }
+            if (Files.exists(target)) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            long time = System.nanoTime();
+            BufferedImage bgImage = ImageIO.read(file.toFile());
+            if (bgImage == null) {
+                ignored.incrementAndGet();
+                return;
+            }
+            if (fgImage.getWidth() < bgImage.getWidth() || fgImage.getHeight() < bgImage.getHeight()) {
+                throw new IOException("Foreground is smaller than " + name);
+            }
+            decodeNanos.addAndGet(System.nanoTime() - time);
+
+            time = System.nanoTime();
+            BufferedImage result = BlendMode.blend(bgImage, fgImage, opacity, mode);
+            blendNanos.addAndGet(System.nanoTime() - time);
+
+            // Written next to the target and moved into place, so an interrupted run never leaves a partial output
+            time = System.nanoTime();
+            Path temp = out.resolve("." + name + ".tmp");
+            try {
+                if (!ImageIO.write(result, formatName(name), temp.toFile())) {
+                    throw new IOException("No writer for " + name);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            encodeNanos.addAndGet(System.nanoTime() - time);
+
+            pixels.addAndGet((long) bgImage.getWidth() * bgImage.getHeight());
+            processed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Failed " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether ImageIO has a reader for a file, without decoding it.
+     * @param file The file to check.
+     * @return True if the file is in a supported image format.
+     * @throws IOException If the file cannot be read.
+     */
+    private static boolean isImage(Path file) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file.toFile())) {
+            return stream != null && ImageIO.getImageReaders(stream).hasNext();
+        }
+    }
+
+    private static String formatName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "png" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Prints per stage timing and throughput. Stage times are summed over all worker threads.
+     * @param wallNanos Wall clock time of the run.
+     */
+    private void report(long wallNanos) {
+        double seconds = wallNanos / 1e9;
+        double megapixels = pixels.get() / 1e6;
+        System.out.printf("Processed %d, skipped %d existing, ignored %d non-image files, failed %d in %.2f s"
+                + " using %d threads%n", processed.get(), skipped.get(), ignored.get(), failed.get(), seconds, threads);
+        System.out.printf("  decode %10.1f ms%n", decodeNanos.get() / 1e6);
+        System.out.printf("  blend  %10.1f ms%n", blendNanos.get() / 1e6);
+        System.out.printf("  encode %10.1f ms%n", encodeNanos.get() / 1e6);
+        System.out.printf("  %.2f megapixels, %.2f megapixels/s%n", megapixels, seconds == 0 ? 0 : megapixels / seconds);
+    }
+}
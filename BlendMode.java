@@ -2,405 +2,394 @@ package BlendMode;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 
 /**
  * This file provides the ability to crate a composite image by combining two images using blend modes.
  */
 public class BlendMode {
+    /**
+     * Minimum pixel count before a uniform image is blended through lookup tables. Below this, building the
+     * 4 x 256 entry tables costs more than blending each pixel.
+     */
+    private static final int LOOKUP_THRESHOLD = 1024;
+
+    /**
+     * Number of pixels read and blended at a time. Whole scanlines are used, so a band holds at least one row.
+     */
+    private static final int BAND_PIXELS = 1 << 16;
+
+    /**
+     * Largest value of the 16 bit linear light scale.
+     */
+    private static final double LINEAR_MAX = 65535.0;
+
+    /**
+     * Largest index of the 12 bit linear light scale used to convert back to sRGB.
+     */
+    private static final int LINEAR_INDEX_MAX = 4095;
+
+    /**
+     * Converts 8 bit sRGB channel values to 16 bit linear light values.
+     */
+    private static final int[] SRGB_TO_LINEAR = new int[256];
+
+    /**
+     * Converts 12 bit linear light values to 8 bit sRGB channel values.
+     */
+    private static final int[] LINEAR_TO_SRGB = new int[LINEAR_INDEX_MAX + 1];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            SRGB_TO_LINEAR[i] = (int) Math.round(decodeSrgb(i / 255.0) * LINEAR_MAX);
+        }
+        for (int i = 0; i < LINEAR_TO_SRGB.length; i++) {
+            LINEAR_TO_SRGB[i] = (int) Math.round(encodeSrgb((double) i / LINEAR_INDEX_MAX) * 255);
+        }
+    }
+
     /**
      * The Constants in Mode define the changes to the blend Method based on which Blend Mode is used.
      */
-    private enum Mode {
+    public enum Mode {
         NORMAL {
             /**
              * Method to provide outline of Normal Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                dest = opacityProcessing(dest, opacity);
-
-                return (int) Math.round(limitRange(dest));
+                return destPercentage;
             }
         },
         DARKEN {
             /**
              * Method to provide outline of Darken Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                return Math.min(src, dest);
+                return Math.min(srcPercentage, destPercentage);
             }
         },
         MULTIPLY {
             /**
              * Method to provide outline of Multiply Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
+            public double calculate(double srcPercentage, double destPercentage) {
 
                 // Blend Mode Calculation
-                double result = (destPercentage * srcPercentage) * 255;
+                double result = destPercentage * srcPercentage;
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         COLOR_BURN {
             /**
              * Method to provide outline of Color Burn Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (destPercentage == 0) {
                     result = 0;
                 } else {
-                    result = (1 - ((1 - srcPercentage) / destPercentage)) * 255;
+                    result = 1 - ((1 - srcPercentage) / destPercentage);
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         LINEAR_BURN {
             /**
              * Method to provide outline of Linear Burn Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
+            public double calculate(double srcPercentage, double destPercentage) {
 
                 // Blend Mode Calculation
-                double result = (srcPercentage + destPercentage - 1) * 255;
+                double result = srcPercentage + destPercentage - 1;
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         LIGHTEN {
             /**
              * Method to provide outline of Lighten Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                return Math.max(src, dest);
+                return Math.max(srcPercentage, destPercentage);
             }
         },
         SCREEN {
             /**
              * Method to provide outline of Screen Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
+            public double calculate(double srcPercentage, double destPercentage) {
 
                 // Blend Mode Calculation
-                double result = (1 - ((1 - srcPercentage) * (1 - destPercentage))) * 255;
+                double result = 1 - ((1 - srcPercentage) * (1 - destPercentage));
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         COLOR_DODGE {
             /**
              * Method to provide outline of Color Dodge Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (destPercentage >= 1) {
-                    result = destPercentage * 255;
+                    result = destPercentage;
                 } else {
-                    result = (srcPercentage / (1 - destPercentage)) * 255;
+                    result = srcPercentage / (1 - destPercentage);
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         ADDITION {
             /**
              * Method to provide outline of Addition Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
+            public double calculate(double srcPercentage, double destPercentage) {
 
                 // Blend Mode Calculation
-                double result = (srcPercentage + destPercentage) * 255;
+                double result = srcPercentage + destPercentage;
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         OVERLAY {
             /**
              * Method to provide outline of Overlay Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (srcPercentage < 0.5) {
-                    result = (destPercentage * srcPercentage * 2) * 255;
+                    result = destPercentage * srcPercentage * 2;
                 } else {
-                    result = (1 - ( 2 * (1 - srcPercentage) * (1 - destPercentage))) * 255;
+                    result = 1 - ( 2 * (1 - srcPercentage) * (1 - destPercentage));
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         SOFT_LIGHT {
             /**
              * Method to provide outline of Soft Light Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
+            public double calculate(double srcPercentage, double destPercentage) {
 
                 // Blend Mode Calculation
-                double result = ((1 - (2 * destPercentage)) * Math.pow(srcPercentage, 2)
-                        + (2 * destPercentage * srcPercentage)) * 255;
+                double result = (1 - (2 * destPercentage)) * Math.pow(srcPercentage, 2)
+                        + (2 * destPercentage * srcPercentage);
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         HARD_LIGHT {
             /**
              * Method to provide outline of Hard Light Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (destPercentage < 0.5) {
-                    result = (destPercentage * srcPercentage * 2) * 255;
+                    result = destPercentage * srcPercentage * 2;
                 } else {
-                    result = (1 - ( 2 * (1 - srcPercentage) * (1 - destPercentage))) * 255;
+                    result = 1 - ( 2 * (1 - srcPercentage) * (1 - destPercentage));
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         VIVID_LIGHT {
             /**
              * Method to provide outline of Vivid Light Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (destPercentage <= 0.5) {
-                    result = (1 - ((1 - srcPercentage) / (destPercentage))) * 255;
+                    result = 1 - ((1 - srcPercentage) / (destPercentage));
                 } else {
-                    result = (srcPercentage / (1 - destPercentage)) * 255;
+                    result = srcPercentage / (1 - destPercentage);
                 }
 
-
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         LINEAR_LIGHT {
             /**
              * Method to provide outline of Linear Light Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (destPercentage <= 0.5) {
-                    result = (srcPercentage + destPercentage - 1) * 255;
+                    result = srcPercentage + destPercentage - 1;
                 } else {
-                    result = (srcPercentage + destPercentage) * 255;
+                    result = srcPercentage + destPercentage;
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         DIFFERENCE {
             /**
              * Method to provide outline of Difference Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
 
                 // Blend Mode Calculation
                 if (srcPercentage == destPercentage) {
-                    result = destPercentage * 255;
+                    result = destPercentage;
                 } else if (srcPercentage > destPercentage) {
-                    result = (srcPercentage - destPercentage) * 255;
+                    result = srcPercentage - destPercentage;
                 } else {
-                    result = (destPercentage - srcPercentage) * 255;
+                    result = destPercentage - srcPercentage;
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         SUBTRACT {
             /**
              * Method to provide outline of Subtract Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                dest = opacityProcessing(dest, opacity);
-
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 double result;
                 // Blend Mode Calculation
                 if (srcPercentage == destPercentage) {
-                    result = destPercentage * 255;
+                    result = destPercentage;
                 } else {
-                    result = (srcPercentage - destPercentage) * 255;
+                    result = srcPercentage - destPercentage;
                 }
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         },
         DIVIDE {
             /**
              * Method to provide outline of Divide Blend Mode calculation.
-             * @param src The 8 bit background channel value. (0 -255)
-             * @param dest The 8 bit foreground channel value. (0 -255)
-             * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
-             * @return The 8 bit composite result after blending calculation
+             * @param srcPercentage The background channel value as a percentage. (0 - 1)
+             * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+             * @return The composite result as a percentage before clamping
              */
-            public int blend(int src, int dest, double opacity) {
-
-                dest = opacityProcessing(dest, opacity);
+            public double calculate(double srcPercentage, double destPercentage) {
 
-                double srcPercentage = src / 255.0;
-                double destPercentage = dest / 255.0;
                 // Blend Mode Calculation
-                double result = (srcPercentage / destPercentage) * 255;
+                double result = srcPercentage / destPercentage;
 
-                return (int) Math.round(limitRange(result));
+                return result;
             }
         };
 
         /**
-         * Abstract Method to provide outline of blend calculation for each Mode.
+         * Method to blend a pair of 8 bit channel values with this Mode.
          * @param src The 8 bit background channel value. (0 -255)
          * @param dest The 8 bit foreground channel value. (0 -255)
          * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
          * @return The 8 bit composite result after blending calculation
          */
-        public abstract int blend(int src, int dest, double opacity);
+        public int blend(int src, int dest, double opacity) {
+
+            dest = opacityProcessing(dest, opacity);
+
+            double result = calculate(src / 255.0, dest / 255.0) * 255;
+
+            return (int) Math.round(limitRange(result));
+        }
+
+        /**
+         * Method to blend a pair of 8 bit sRGB channel values with this Mode in linear light. Both values are
+         * converted through lookup tables, so no gamma calculation is done per channel. Opacity is applied to the
+         * linear foreground value, as 0.5 is the neutral value in linear light rather than sRGB 128.
+         * @param src The 8 bit sRGB background channel value. (0 -255)
+         * @param dest The 8 bit sRGB foreground channel value. (0 -255)
+         * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+         * @return The 8 bit sRGB composite result after blending calculation
+         */
+        public int blendLinear(int src, int dest, double opacity) {
+
+            double destLinear = linearOpacityProcessing(SRGB_TO_LINEAR[dest] / LINEAR_MAX, opacity);
+
+            double result = calculate(SRGB_TO_LINEAR[src] / LINEAR_MAX, destLinear);
+
+            return linearToSrgb(result);
+        }
+
+        /**
+         * Abstract Method to provide outline of blend calculation for each Mode.
+         * @param srcPercentage The background channel value as a percentage. (0 - 1)
+         * @param destPercentage The foreground channel value as a percentage. (0 - 1)
+         * @return The composite result as a percentage before clamping
+         */
+        public abstract double calculate(double srcPercentage, double destPercentage);
     }
 
     /**
@@ -412,7 +401,7 @@ public class BlendMode {
      */
     public static BufferedImage normal(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.NORMAL;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Darken Blend Mode.
@@ -423,7 +412,7 @@ public class BlendMode {
      */
     public static BufferedImage darken(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.DARKEN;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Multiply Blend Mode.
@@ -434,7 +423,7 @@ public class BlendMode {
      */
     public static BufferedImage multiply(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.MULTIPLY;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Color Burn Blend Mode.
@@ -445,7 +434,7 @@ public class BlendMode {
      */
     public static BufferedImage colorBurn(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.COLOR_BURN;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Linear Burn Blend Mode.
@@ -456,7 +445,7 @@ public class BlendMode {
      */
     public static BufferedImage linearBurn(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.LINEAR_BURN;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Lighten Blend Mode.
@@ -467,7 +456,7 @@ public class BlendMode {
      */
     public static BufferedImage lighten(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.LIGHTEN;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Screen Blend Mode.
@@ -478,7 +467,7 @@ public class BlendMode {
      */
     public static BufferedImage screen(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.SCREEN;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Color Dodge Blend Mode.
@@ -489,7 +478,7 @@ public class BlendMode {
      */
     public static BufferedImage colorDodge(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.COLOR_DODGE;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using an Addition (Linear Dodge) Blend Mode.
@@ -500,7 +489,7 @@ public class BlendMode {
      */
     public static BufferedImage addition(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.ADDITION;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using an Overlay Blend Mode.
@@ -511,7 +500,7 @@ public class BlendMode {
      */
     public static BufferedImage overlay(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.OVERLAY;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Soft Light Blend Mode.
@@ -522,7 +511,7 @@ public class BlendMode {
      */
     public static BufferedImage softLight(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.SOFT_LIGHT;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Hard Light Blend Mode.
@@ -533,7 +522,7 @@ public class BlendMode {
      */
     public static BufferedImage hardLight(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.HARD_LIGHT;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Vivid Light Blend Mode.
@@ -544,7 +533,7 @@ public class BlendMode {
      */
     public static BufferedImage vividLight(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.VIVID_LIGHT;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Linear Light Blend Mode.
@@ -555,7 +544,7 @@ public class BlendMode {
      */
     public static BufferedImage linearLight(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.LINEAR_LIGHT;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Difference Blend Mode.
@@ -566,7 +555,7 @@ public class BlendMode {
      */
     public static BufferedImage difference(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.DIFFERENCE;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Subtract Blend Mode.
@@ -577,7 +566,7 @@ public class BlendMode {
      */
     public static BufferedImage subtract(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.SUBTRACT;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Method to create a composite image from two images using a Divide Blend Mode.
@@ -588,7 +577,7 @@ public class BlendMode {
      */
     public static BufferedImage divide(BufferedImage bg, BufferedImage fg, double opacity) {
         BlendMode.Mode mode = BlendMode.Mode.DIVIDE;
-        return processing(bg,fg,opacity, mode);
+        return processing(bg,fg,opacity, mode, false);
     }
     /**
      * Overloaded method of Normal Blend Mode. If an Opacity Parameter is not inputted, an opacity of 1 (100%) is assumed.
@@ -743,6 +732,112 @@ public class BlendMode {
     public static BufferedImage divide(BufferedImage bg, BufferedImage fg) {
         return divide(bg, fg, 1);
     }
+    /**
+     * Method to create a composite image from two images using the given Blend Mode.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @return Returns a BufferedImage Composite.
+     */
+    public static BufferedImage blend(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode) {
+        return processing(bg, fg, opacity, mode, false);
+    }
+    /**
+     * Method to create a composite image from two images using the given Blend Mode in linear light. The sRGB colour
+     * channels are converted to linear light before blending and back afterwards, which gives gamma correct results.
+     * The alpha channel is blended as is.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @return Returns a BufferedImage Composite.
+     */
+    public static BufferedImage blendLinear(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode) {
+        return processing(bg, fg, opacity, mode, true);
+    }
+    /**
+     * Method to create the composite of a region of two images using the given Blend Mode. The background image is
+     * not modified. The returned tile matches the same region of the full composite, so tiles blended independently
+     * can be stitched together, see TilePlan.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param region The region to blend. Has to lie within the background image.
+     * @return Returns a BufferedImage Composite the size of the region.
+     */
+    public static BufferedImage blendRegion(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode,
+                                            Rectangle region) {
+        return regionProcessing(bg, fg, opacity, mode, false, region);
+    }
+    /**
+     * Method to create the composite of a range of scanlines of two images using the given Blend Mode.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param firstRow The first scanline to blend.
+     * @param rowCount The number of scanlines to blend.
+     * @return Returns a BufferedImage Composite the full width of the background and rowCount high.
+     */
+    public static BufferedImage blendRows(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode,
+                                         int firstRow, int rowCount) {
+        return blendRegion(bg, fg, opacity, mode, new Rectangle(0, firstRow, bg.getWidth(), rowCount));
+    }
+    /**
+     * Method to create the composite of a region of two images using the given Blend Mode in linear light. The
+     * returned tile matches the same region of blendLinear, see blendRegion.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param region The region to blend. Has to lie within the background image.
+     * @return Returns a BufferedImage Composite the size of the region.
+     */
+    public static BufferedImage blendLinearRegion(BufferedImage bg, BufferedImage fg, double opacity,
+                                                  BlendMode.Mode mode, Rectangle region) {
+        return regionProcessing(bg, fg, opacity, mode, true, region);
+    }
+    /**
+     * Method to create the composite of a range of scanlines of two images using the given Blend Mode in linear
+     * light.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param firstRow The first scanline to blend.
+     * @param rowCount The number of scanlines to blend.
+     * @return Returns a BufferedImage Composite the full width of the background and rowCount high.
+     */
+    public static BufferedImage blendLinearRows(BufferedImage bg, BufferedImage fg, double opacity,
+                                               BlendMode.Mode mode, int firstRow, int rowCount) {
+        return blendLinearRegion(bg, fg, opacity, mode, new Rectangle(0, firstRow, bg.getWidth(), rowCount));
+    }
+    /**
+     * Method to blend a region of the background and foreground image into a new tile.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     * @param region The region to blend. Has to lie within the background image.
+     * @return BufferedImage tile outputted after blend mode processing
+     */
+    private static BufferedImage regionProcessing(BufferedImage bg, BufferedImage fg, double opacity,
+                                                  BlendMode.Mode mode, boolean linear, Rectangle region) {
+        if (region.isEmpty() || !new Rectangle(0, 0, bg.getWidth(), bg.getHeight()).contains(region)) {
+            throw new IllegalArgumentException("Region " + region + " is not within the background image");
+        }
+
+        // The tile starts as a copy of the background region, the composite is drawn onto it as onto bg
+        WritableRaster raster = bg.getRaster().createCompatibleWritableRaster(region.width, region.height);
+        bg.getSubimage(region.x, region.y, region.width, region.height).copyData(raster);
+        BufferedImage tile = new BufferedImage(bg.getColorModel(), raster, bg.isAlphaPremultiplied(), null);
+
+        processing(bg, fg, opacity, mode, linear, region, tile);
+        return tile;
+    }
 
     /**
      * Method to create composite image from blending background and foreground image.
@@ -750,48 +845,296 @@ public class BlendMode {
      * @param fg The image used as the foreground of the composite image. The background image is layered below.
      * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
      * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
      * @return BufferedImage outputted after blend mode processing
      */
-    private static BufferedImage processing(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode) {
-        Graphics2D g2d = bg.createGraphics();
+    private static BufferedImage processing(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode,
+                                            boolean linear) {
+        processing(bg, fg, opacity, mode, linear, new Rectangle(0, 0, bg.getWidth(), bg.getHeight()), bg);
+        return bg;
+    }
+    /**
+     * Method to blend a region of the background and foreground image and draw the composite onto a target image.
+     * @param bg The image used as the background of the composite image. The foreground image is layered above.
+     * @param fg The image used as the foreground of the composite image. The background image is layered below.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     * @param region The region of bg and fg to blend.
+     * @param target The image the composite is drawn onto, with the region's top left corner at 0, 0.
+     */
+    private static void processing(BufferedImage bg, BufferedImage fg, double opacity, BlendMode.Mode mode,
+                                   boolean linear, Rectangle region, BufferedImage target) {
+        Graphics2D g2d = target.createGraphics();
+
+        int width = region.width;
+        int height = region.height;
+
+        // Pixels are read, blended and drawn one band of scanlines at a time, so only band sized buffers are held
+        // instead of whole image arrays
+        int bandRows = Math.max(1, Math.min(height, BAND_PIXELS / width));
+        int[] srcPixels = new int[width * bandRows];
+        int[] destPixels = new int[width * bandRows];
+        int[] resultPixels = new int[width * bandRows];
+        BufferedImage band = new BufferedImage(width, bandRows, BufferedImage.TYPE_INT_ARGB);
+
+        // First pass: a uniform image is blended through lookup tables built once for the whole region
+        int[][] lookup = null;
+        boolean uniformForeground = false;
+        if ((long) width * height > LOOKUP_THRESHOLD) {
+            if (isUniform(fg, region, destPixels, bandRows)) {
+                lookup = channelLookup(destPixels[0], true, opacity, mode, linear);
+                uniformForeground = true;
+            } else if (isUniform(bg, region, srcPixels, bandRows)) {
+                lookup = channelLookup(srcPixels[0], false, opacity, mode, linear);
+            }
+        }
+
+        for (int row = 0; row < height; row += bandRows) {
+            int rows = Math.min(bandRows, height - row);
+            int length = width * rows;
 
-        // Create a new BufferedImage to store the result
-        BufferedImage resultImage = new BufferedImage(bg.getWidth(), bg.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
+            // Reads both images as packed ARGB Pixels (8 Bit Channels (0 - 255)), the uniform image is never read
+            if (lookup == null || uniformForeground) {
+                bg.getRGB(region.x, region.y + row, width, rows, srcPixels, 0, width);
+            }
+            if (lookup == null || !uniformForeground) {
+                fg.getRGB(region.x, region.y + row, width, rows, destPixels, 0, width);
+            }
+
+            if (lookup != null) {
+                lookupPixels(lookup, uniformForeground ? srcPixels : destPixels, resultPixels, length);
+            } else {
+                blendPairs(srcPixels, destPixels, resultPixels, length, opacity, mode, linear);
+            }
 
-        // Splits image into Pixels and then ARGB Channels for each pixel (24 Bit Pixels, 8 Bit Channels (0 - 255)
-        // Applies Blend Mode to each channel and adds new composite pixel to resultImage
-        for (int x = 0; x < bg.getWidth(); x++) {
-            for (int y = 0; y < bg.getHeight(); y++) {
+            band.setRGB(0, 0, width, rows, resultPixels, 0, width);
+            g2d.drawImage(rows == bandRows ? band : band.getSubimage(0, 0, width, rows), 0, row, null);
+        }
+        g2d.dispose();
+    }
+    /**
+     * Method to blend arrays of packed ARGB pixels. Short-circuits the blend calculation where the result is known:
+     * a uniform foreground or background is reduced to a 256 entry lookup table per channel, and runs of repeated
+     * pixel pairs reuse the previous result.
+     * @param srcPixels Packed ARGB pixels of the background image.
+     * @param destPixels Packed ARGB pixels of the foreground image.
+     * @param resultPixels Array the composite ARGB pixels are written to.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     */
+    static void blendPixels(int[] srcPixels, int[] destPixels, int[] resultPixels,
+                            double opacity, BlendMode.Mode mode, boolean linear) {
+        int length = resultPixels.length;
+        if (length == 0) {
+            return;
+        }
 
-                int srcPixel = bg.getRGB(x, y);
-                int destPixel = fg.getRGB(x, y);
+        // Only the varying image is looked up, the uniform image's channels are baked into the table
+        if (length > LOOKUP_THRESHOLD && isUniform(destPixels, length)) {
+            int[][] lookup = channelLookup(destPixels[0], true, opacity, mode, linear);
+            lookupPixels(lookup, srcPixels, resultPixels, length);
+            return;
+        }
+        if (length > LOOKUP_THRESHOLD && isUniform(srcPixels, length)) {
+            int[][] lookup = channelLookup(srcPixels[0], false, opacity, mode, linear);
+            lookupPixels(lookup, destPixels, resultPixels, length);
+            return;
+        }
 
-                int srcAlpha = (srcPixel >> 24) & 0xFF;
-                int destAlpha = (destPixel >> 24) & 0xFF;
+        blendPairs(srcPixels, destPixels, resultPixels, length, opacity, mode, linear);
+    }
+    /**
+     * Method to blend arrays of packed ARGB pixels pair by pair. Runs of repeated pixel pairs reuse the previous
+     * result.
+     * @param srcPixels Packed ARGB pixels of the background image.
+     * @param destPixels Packed ARGB pixels of the foreground image.
+     * @param resultPixels Array the composite ARGB pixels are written to.
+     * @param length Number of pixels to blend.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     */
+    private static void blendPairs(int[] srcPixels, int[] destPixels, int[] resultPixels, int length,
+                                   double opacity, BlendMode.Mode mode, boolean linear) {
+        int lastSrc = srcPixels[0];
+        int lastDest = destPixels[0];
+        int lastResult = blendPixel(lastSrc, lastDest, opacity, mode, linear);
+        resultPixels[0] = lastResult;
+
+        for (int i = 1; i < length; i++) {
+            int srcPixel = srcPixels[i];
+            int destPixel = destPixels[i];
+
+            // Runs of identical pixel pairs reuse the previous result
+            if (srcPixel != lastSrc || destPixel != lastDest) {
+                lastSrc = srcPixel;
+                lastDest = destPixel;
+                lastResult = blendPixel(srcPixel, destPixel, opacity, mode, linear);
+            }
+            resultPixels[i] = lastResult;
+        }
+    }
+    /**
+     * Method to blend a single pair of packed ARGB pixels channel by channel.
+     * @param srcPixel Packed ARGB pixel of the background image.
+     * @param destPixel Packed ARGB pixel of the foreground image.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     * @return Packed ARGB composite pixel.
+     */
+    private static int blendPixel(int srcPixel, int destPixel, double opacity, BlendMode.Mode mode, boolean linear) {
+        int srcAlpha = (srcPixel >> 24) & 0xFF;
+        int destAlpha = (destPixel >> 24) & 0xFF;
 
-                int srcRed = (srcPixel >> 16) & 0xFF;
-                int destRed = (destPixel >> 16) & 0xFF;
+        int srcRed = (srcPixel >> 16) & 0xFF;
+        int destRed = (destPixel >> 16) & 0xFF;
 
-                int srcGreen = (srcPixel >> 8) & 0xFF;
-                int destGreen = (destPixel >> 8) & 0xFF;
+        int srcGreen = (srcPixel >> 8) & 0xFF;
+        int destGreen = (destPixel >> 8) & 0xFF;
 
-                int srcBlue = srcPixel & 0xFF;
-                int destBlue = destPixel & 0xFF;
+        int srcBlue = srcPixel & 0xFF;
+        int destBlue = destPixel & 0xFF;
 
-                int resultRed = mode.blend(srcRed, destRed, opacity);
-                int resultGreen = mode.blend(srcGreen, destGreen, opacity);
-                int resultBlue = mode.blend(srcBlue, destBlue, opacity);
-                int resultAlpha = mode.blend(srcAlpha, destAlpha, opacity);
+        int resultRed = blendChannel(srcRed, destRed, opacity, mode, linear);
+        int resultGreen = blendChannel(srcGreen, destGreen, opacity, mode, linear);
+        int resultBlue = blendChannel(srcBlue, destBlue, opacity, mode, linear);
+        int resultAlpha = mode.blend(srcAlpha, destAlpha, opacity);
 
-                int resultPixel =  (resultAlpha << 24) | (resultRed << 16) | (resultGreen << 8) | resultBlue;
-                resultImage.setRGB(x, y, resultPixel);
+        return (resultAlpha << 24) | (resultRed << 16) | (resultGreen << 8) | resultBlue;
+    }
+    /**
+     * Checks whether every pixel in the array holds the same ARGB value.
+     * @param pixels Packed ARGB pixels.
+     * @param length Number of pixels to check.
+     * @return True if all pixels are identical.
+     */
+    private static boolean isUniform(int[] pixels, int length) {
+        int first = pixels[0];
+        for (int i = 1; i < length; i++) {
+            if (pixels[i] != first) {
+                return false;
             }
         }
-        g2d.drawImage(resultImage, 0, 0, null);
-        g2d.dispose();
-
-        return bg;
+        return true;
+    }
+    /**
+     * Checks whether every pixel in a region of an image holds the same ARGB value, reading one band of scanlines at
+     * a time. Stops at the first band that differs.
+     * @param image The image to check.
+     * @param region The region of the image to check.
+     * @param buffer Band buffer, holds the region's first pixel at index 0 afterwards if the region is uniform.
+     * @param bandRows Number of scanlines the buffer holds.
+     * @return True if all pixels are identical.
+     */
+    private static boolean isUniform(BufferedImage image, Rectangle region, int[] buffer, int bandRows) {
+        int width = region.width;
+        int first = image.getRGB(region.x, region.y);
+        for (int row = 0; row < region.height; row += bandRows) {
+            int rows = Math.min(bandRows, region.height - row);
+            image.getRGB(region.x, region.y + row, width, rows, buffer, 0, width);
+            for (int i = 0; i < width * rows; i++) {
+                if (buffer[i] != first) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    /**
+     * Builds a lookup table per channel (Alpha, Red, Green, Blue) for blending against a single uniform pixel.
+     * Table entries are already shifted into their channel position.
+     * @param uniformPixel The packed ARGB pixel shared by every pixel of the uniform image.
+     * @param uniformForeground True if the uniform pixel is the foreground, false if it is the background.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend the colour channels in linear light.
+     * @return Four 256 entry tables indexed by the varying image's channel value.
+     */
+    private static int[][] channelLookup(int uniformPixel, boolean uniformForeground, double opacity,
+                                         BlendMode.Mode mode, boolean linear) {
+        int[][] lookup = new int[4][256];
+        for (int channel = 0; channel < 4; channel++) {
+            int shift = 24 - (channel * 8);
+            int uniformValue = (uniformPixel >> shift) & 0xFF;
+            // Channel 0 is alpha, which is never converted to linear light
+            boolean linearChannel = linear && channel > 0;
+            for (int value = 0; value < 256; value++) {
+                int result = uniformForeground
+                        ? blendChannel(value, uniformValue, opacity, mode, linearChannel)
+                        : blendChannel(uniformValue, value, opacity, mode, linearChannel);
+                lookup[channel][value] = result << shift;
+            }
+        }
+        return lookup;
+    }
+    /**
+     * Resolves a composite pixel from per channel lookup tables.
+     * @param lookup Tables created by channelLookup.
+     * @param pixel Packed ARGB pixel of the varying image.
+     * @return Packed ARGB composite pixel.
+     */
+    private static int lookupPixel(int[][] lookup, int pixel) {
+        return lookup[0][(pixel >> 24) & 0xFF]
+                | lookup[1][(pixel >> 16) & 0xFF]
+                | lookup[2][(pixel >> 8) & 0xFF]
+                | lookup[3][pixel & 0xFF];
+    }
+    /**
+     * Resolves composite pixels from per channel lookup tables.
+     * @param lookup Tables created by channelLookup.
+     * @param pixels Packed ARGB pixels of the varying image.
+     * @param resultPixels Array the composite ARGB pixels are written to.
+     * @param length Number of pixels to resolve.
+     */
+    private static void lookupPixels(int[][] lookup, int[] pixels, int[] resultPixels, int length) {
+        for (int i = 0; i < length; i++) {
+            resultPixels[i] = lookupPixel(lookup, pixels[i]);
+        }
+    }
+    /**
+     * Method to blend a single colour channel, either on the 8 bit sRGB values or in linear light.
+     * @param src The 8 bit background channel value. (0 -255)
+     * @param dest The 8 bit foreground channel value. (0 -255)
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The mode being used for processing.
+     * @param linear True to blend in linear light.
+     * @return The 8 bit composite result after blending calculation
+     */
+    private static int blendChannel(int src, int dest, double opacity, BlendMode.Mode mode, boolean linear) {
+        return linear ? mode.blendLinear(src, dest, opacity) : mode.blend(src, dest, opacity);
+    }
+    /**
+     * Converts a linear light blend result back to an 8 bit sRGB channel value through the 12 bit lookup table.
+     * @param linear Linear light value after blend mode processing (0 - 1, may be out of range)
+     * @return 8-Bit sRGB Channel Value clamped to 8 Bits (0 - 255)
+     */
+    private static int linearToSrgb(double linear) {
+        // NaN, e.g. Divide with a black foreground, is treated as 0 like in the 8 bit path
+        if (!(linear > 0)) {
+            return 0;
+        } else if (linear >= 1) {
+            return 255;
+        }
+        return LINEAR_TO_SRGB[(int) Math.round(linear * LINEAR_INDEX_MAX)];
+    }
+    /**
+     * sRGB transfer function used to build the lookup tables.
+     * @param value sRGB encoded value (0 - 1)
+     * @return Linear light value (0 - 1)
+     */
+    private static double decodeSrgb(double value) {
+        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+    /**
+     * Inverse sRGB transfer function used to build the lookup tables.
+     * @param value Linear light value (0 - 1)
+     * @return sRGB encoded value (0 - 1)
+     */
+    private static double encodeSrgb(double value) {
+        return value <= 0.0031308 ? value * 12.92 : 1.055 * Math.pow(value, 1 / 2.4) - 0.055;
     }
     /**
      * Method to change dest channel value based on input opacity
@@ -802,6 +1145,15 @@ public class BlendMode {
     private static int opacityProcessing(int dest, double opacity) {
         return (int) (128 - (128 * opacity) + (dest * opacity));
     }
+    /**
+     * Method to change a linear light dest channel value based on input opacity
+     * @param dest Linear light Channel Value from Foreground Pixel (0 - 1)
+     * @param opacity Opacity Percentage (0 100% Transparent - 1 100% Opaque)
+     * @return Returns new linear light Destination Channel Value (0 - 1)
+     */
+    private static double linearOpacityProcessing(double dest, double opacity) {
+        return 0.5 - (0.5 * opacity) + (dest * opacity);
+    }
     /**
      * Clamps Channel Values to 8 Bits (0 - 255)
      * @param result 8-Bit Channel Value after blend mode processing
@@ -816,4 +1168,3 @@ public class BlendMode {
         return result;
     }
 }
-}
@@ -0,0 +1,97 @@
+package BlendMode;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * This file provides a simple benchmark comparing blend times for typical overlay assets (flat colour and
+ * large constant runs) against a noisy foreground that has to be blended pixel by pixel. Each line is labelled with
+ * the path of the pixel kernel it exercises.
+ */
+class BlendModeBenchmark {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 10;
+
+    /**
+     * Runs the benchmark and prints the average time per composite for each foreground type.
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        BufferedImage bg = noise(random);
+
+        BufferedImage noise = noise(random);
+        BufferedImage flat = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage runs = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage gradient = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            // Vertical UI gradient: every scanline is one colour, but the image is not uniform
+            int shade = y * 255 / (HEIGHT - 1);
+            for (int x = 0; x < WIDTH; x++) {
+                flat.setRGB(x, y, 0xFF3366CC);
+                // Banner style overlay: a solid bar with a transparent area below
+                runs.setRGB(x, y, y < HEIGHT / 4 ? 0xFF202020 : 0x00000000);
+                gradient.setRGB(x, y, 0xFF000000 | (shade << 16) | (shade << 8) | (255 - shade));
+            }
+        }
+
+        System.out.printf("%dx%d, %d runs%n", WIDTH, HEIGHT, RUNS);
+        report("per pixel (noise background, noise foreground)", time(bg, noise, false));
+        report("per pixel, linear light (noise background, noise foreground)", time(bg, noise, true));
+        report("uniform foreground lookup (noise background, flat foreground)", time(bg, flat, false));
+        report("uniform background lookup (flat background, banner foreground)", time(flat, runs, false));
+        report("repeated pairs (gradient background, banner foreground)", time(gradient, runs, false));
+    }
+
+    private static void report(String path, double millis) {
+        System.out.printf("%-64s %8.2f ms%n", path + ":", millis);
+    }
+
+    /**
+     * Measures the average time of an Overlay composite.
+     * @param bg The background image.
+     * @param fg The foreground image.
+     * @param linear True to blend in linear light.
+     * @return Average milliseconds per composite.
+     */
+    private static double time(BufferedImage bg, BufferedImage fg, boolean linear) {
+        for (int i = 0; i < WARMUP; i++) {
+            overlay(copy(bg), fg, linear);
+        }
+        long total = 0;
+        for (int i = 0; i < RUNS; i++) {
+            BufferedImage target = copy(bg);
+            long start = System.nanoTime();
+            overlay(target, fg, linear);
+            total += System.nanoTime() - start;
+        }
+        return total / (RUNS * 1_000_000.0);
+    }
+
+    private static void overlay(BufferedImage bg, BufferedImage fg, boolean linear) {
+        if (linear) {
+            BlendMode.blendLinear(bg, fg, 0.6, BlendMode.Mode.OVERLAY);
+        } else {
+            BlendMode.blend(bg, fg, 0.6, BlendMode.Mode.OVERLAY);
+        }
+    }
+
+    private static BufferedImage noise(Random random) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt() | 0xFF000000);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        copy.setRGB(0, 0, image.getWidth(), image.getHeight(),
+                image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()), 0, image.getWidth());
+        return copy;
+    }
+}
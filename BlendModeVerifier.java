@@ -0,0 +1,476 @@
+package BlendMode;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This file provides a differential check of the optimised blend paths against the reference Mode.blend
+ * calculation, and a golden image check of the public BlendMode output.
+ * <p>
+ * Every backend is run over all 65,536 (src, dest) channel pairs for a sweep of opacities and compared channel by
+ * channel with the reference. The maximum and mean error is reported per Mode and backend, along with the number of
+ * channels that drift from Mode.blend or Mode.blendLinear, which every backend has to match exactly. In linear light,
+ * Overlay, Soft Light and Hard Light have to return the background unchanged at opacity 0. The golden images are
+ * seeded composites whose sRGB hashes were recorded from the original per pixel implementation. Finally the golden
+ * images are blended as tiles by several worker threads, stitched, and compared with the full composite.
+ * <p>
+ * Exits with 1 if any backend exceeds its tolerance or drifts, or a golden hash differs. Run with --update to print
+ * the golden hashes of the current implementation.
+ */
+class BlendModeVerifier {
+    private static final double[] OPACITIES = {0, 0.1, 0.25, 1 / 3.0, 0.5, 0.6, 0.75, 0.9, 1};
+    private static final double GOLDEN_OPACITY = 0.6;
+    private static final int GOLDEN_SIZE = 256;
+    private static final int WORKERS = 4;
+
+    /**
+     * Modes that leave the background unchanged in linear light at opacity 0, where the foreground is pulled to the
+     * neutral 0.5.
+     */
+    private static final BlendMode.Mode[] NEUTRAL_MODES = {
+            BlendMode.Mode.OVERLAY, BlendMode.Mode.SOFT_LIGHT, BlendMode.Mode.HARD_LIGHT};
+
+    /**
+     * Hashes of the golden composites: noise foreground, flat foreground, and both again in linear light.
+     */
+    private static final Map<BlendMode.Mode, long[]> GOLDEN = new EnumMap<>(BlendMode.Mode.class);
+
+    static {
+        GOLDEN.put(BlendMode.Mode.NORMAL,
+                new long[]{0x1b32a00e24b07330L, 0xe9ed64160919a577L, 0xd3cdc87b26c07d08L, 0xadee4acb59c575f2L});
+        GOLDEN.put(BlendMode.Mode.DARKEN,
+                new long[]{0xd4f42c59001ee485L, 0x9820c30bf7c3b78fL, 0x61da6dc4b5c43625L, 0x2c6aa78cd468f024L});
+        GOLDEN.put(BlendMode.Mode.MULTIPLY,
+                new long[]{0xe6830c0e13d83c8dL, 0x8f1194e784197269L, 0x5fd7152cfe71e9dbL, 0xc2e0c801cc5a4d3bL});
+        GOLDEN.put(BlendMode.Mode.COLOR_BURN,
+                new long[]{0x17fed6c683e131d5L, 0x265429b9a0a7cf2aL, 0x357df603c8cd6dc2L, 0x7af0310df52d85ccL});
+        GOLDEN.put(BlendMode.Mode.LINEAR_BURN,
+                new long[]{0xd60fa86dc25f990aL, 0xc238cff951c9d876L, 0xe93a7b720444d40dL, 0xa926470636c7a294L});
+        GOLDEN.put(BlendMode.Mode.LIGHTEN,
+                new long[]{0x649c48ff2389dd0fL, 0xff9adc9767cd011cL, 0x55661f33d685dca1L, 0xa54461163a63919cL});
+        GOLDEN.put(BlendMode.Mode.SCREEN,
+                new long[]{0x02f01767bfb11606L, 0x8bab5a1ddc95a9d5L, 0x199195d5cdb6100cL, 0x87168ce3dbe0c63bL});
+        GOLDEN.put(BlendMode.Mode.COLOR_DODGE,
+                new long[]{0x1f8c70437caf86cdL, 0x459fade892363ff5L, 0x9155ec0f0881b78fL, 0x724cea25bd638ab7L});
+        GOLDEN.put(BlendMode.Mode.ADDITION,
+                new long[]{0xd4fa282fb5270f80L, 0x05fe4ba19d64a879L, 0x7e75396217d28b73L, 0x1b315c4681b911a6L});
+        GOLDEN.put(BlendMode.Mode.OVERLAY,
+                new long[]{0x117cf45a354b333cL, 0xdc8db83df3ebe6cdL, 0x3bf7b8312fb28740L, 0x5e22cbc747dfbba6L});
+        GOLDEN.put(BlendMode.Mode.SOFT_LIGHT,
+                new long[]{0xe2576b0092313c91L, 0x012e9f9047eaff6cL, 0x5a92bde5a64476e6L, 0x59ab1d391aee3682L});
+        GOLDEN.put(BlendMode.Mode.HARD_LIGHT,
+                new long[]{0x2faba105e5a12ec9L, 0xd7a0bab424a3617dL, 0xe68242f0ff7a579eL, 0x1c134e83368e69aeL});
+        GOLDEN.put(BlendMode.Mode.VIVID_LIGHT,
+                new long[]{0x24d25fd99a0ad803L, 0x44fc464e56f75e57L, 0xa67f82017a0b2230L, 0xebf1c890100d1e92L});
+        GOLDEN.put(BlendMode.Mode.LINEAR_LIGHT,
+                new long[]{0x74f8b4a0809db74fL, 0x289542bc8412ed83L, 0xf2de8b9d339fbce3L, 0xc6381494ca15d839L});
+        GOLDEN.put(BlendMode.Mode.DIFFERENCE,
+                new long[]{0xd065e0645693504aL, 0x1cc8c5afe1070195L, 0x636c2e0fa22bacc9L, 0x9ba4ccda01abe61bL});
+        GOLDEN.put(BlendMode.Mode.SUBTRACT,
+                new long[]{0x8b253e8829f2e74eL, 0x463dc8a2552bb901L, 0x0f9997830637ab82L, 0x0792a82791af5167L});
+        GOLDEN.put(BlendMode.Mode.DIVIDE,
+                new long[]{0x7b5771bd01a8d549L, 0x18d41cc15230f593L, 0x9cf9cea65c4aa387L, 0x88477605c66a52ffL});
+    }
+
+    /**
+     * A path through the pixel kernel, selected by the shape of the input.
+     */
+    private enum Kernel {
+        /**
+         * Per pixel path, every pair differs from the previous one.
+         */
+        PIXEL,
+        /**
+         * Per pixel path where every pair is repeated, so results are reused.
+         */
+        RUN,
+        /**
+         * Lookup tables for a uniform foreground.
+         */
+        UNIFORM_FOREGROUND,
+        /**
+         * Lookup tables for a uniform background.
+         */
+        UNIFORM_BACKGROUND
+    }
+
+    /**
+     * A way of blending pixel arrays that is compared against the reference. Every kernel path is run on the 8 bit
+     * values and in linear light.
+     */
+    private enum Backend {
+        PIXEL(Kernel.PIXEL, false),
+        RUN(Kernel.RUN, false),
+        UNIFORM_FOREGROUND(Kernel.UNIFORM_FOREGROUND, false),
+        UNIFORM_BACKGROUND(Kernel.UNIFORM_BACKGROUND, false),
+        LINEAR_PIXEL(Kernel.PIXEL, true),
+        LINEAR_RUN(Kernel.RUN, true),
+        LINEAR_UNIFORM_FOREGROUND(Kernel.UNIFORM_FOREGROUND, true),
+        LINEAR_UNIFORM_BACKGROUND(Kernel.UNIFORM_BACKGROUND, true);
+
+        private final Kernel kernel;
+        private final boolean linear;
+
+        Backend(Kernel kernel, boolean linear) {
+            this.kernel = kernel;
+            this.linear = linear;
+        }
+
+        /**
+         * @return Allowed error against the reference. Linear light is compared with exact sRGB conversion, which
+         * the 12 bit lookup table matches to within one step.
+         */
+        private int tolerance() {
+            return linear ? 1 : 0;
+        }
+    }
+
+    /**
+     * Runs the differential check and the golden image check.
+     * @param args --update to print the golden hashes instead of checking them.
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--update")) {
+            printGolden();
+            return;
+        }
+
+        boolean passed = true;
+        System.out.printf("%-13s %-26s %5s %10s %7s%n", "mode", "backend", "max", "mean", "drift");
+        for (BlendMode.Mode mode : BlendMode.Mode.values()) {
+            for (Backend backend : Backend.values()) {
+                ErrorStats stats = differential(mode, backend);
+                boolean ok = stats.max <= backend.tolerance() && stats.drift == 0;
+                passed &= ok;
+                System.out.printf("%-13s %-26s %5d %10.6f %7d%s%n", mode, backend, stats.max, stats.mean(),
+                        stats.drift, ok ? "" : "  FAILED");
+            }
+        }
+
+        for (BlendMode.Mode mode : NEUTRAL_MODES) {
+            for (Backend backend : Backend.values()) {
+                // The 8 bit path pulls the foreground to 128 / 255, which is not exactly neutral
+                if (backend.linear && !transparentIdentity(mode, backend)) {
+                    passed = false;
+                    System.out.printf("identity %s %s: opacity 0 changes the background  FAILED%n", mode, backend);
+                }
+            }
+        }
+
+        for (BlendMode.Mode mode : BlendMode.Mode.values()) {
+            long[] expected = GOLDEN.get(mode);
+            long[] actual = golden(mode);
+            for (int i = 0; i < actual.length; i++) {
+                if (expected == null || expected[i] != actual[i]) {
+                    passed = false;
+                    System.out.printf("golden %s %d: expected %016x, got %016x  FAILED%n", mode, i,
+                            expected == null ? 0 : expected[i], actual[i]);
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            for (BlendMode.Mode mode : BlendMode.Mode.values()) {
+                for (TilePlan plan : new TilePlan[]{TilePlan.grid(GOLDEN_SIZE, GOLDEN_SIZE, 37, 53),
+                        TilePlan.rows(GOLDEN_SIZE, GOLDEN_SIZE, 7)}) {
+                    for (boolean linear : new boolean[]{false, true}) {
+                        if (!tiled(mode, plan, linear, executor)) {
+                            passed = false;
+                            System.out.printf("tiles %s %d%s: stitched composite differs  FAILED%n", mode,
+                                    plan.tiles().size(), linear ? " linear" : "");
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares a backend with the reference over all channel pairs and opacities.
+     * @param mode The Blend Mode to check.
+     * @param backend The backend to check.
+     * @return Error and drift of the backend in 8 bit channel steps.
+     */
+    private static ErrorStats differential(BlendMode.Mode mode, Backend backend) {
+        ErrorStats stats = new ErrorStats();
+        for (double opacity : OPACITIES) {
+            int[][] results = results(mode, backend, opacity);
+            for (int src = 0; src < 256; src++) {
+                for (int dest = 0; dest < 256; dest++) {
+                    int pixel = results[src][dest];
+                    // Alpha is always blended on the 8 bit values, the colour channels depend on the backend
+                    int alpha = mode.blend(src, dest, opacity);
+                    stats.add(((pixel >> 24) & 0xFF), alpha, alpha);
+                    int reference = backend.linear
+                            ? referenceLinear(src, dest, opacity, mode)
+                            : mode.blend(src, dest, opacity);
+                    int expected = backend.linear
+                            ? mode.blendLinear(src, dest, opacity)
+                            : mode.blend(src, dest, opacity);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        stats.add((pixel >> shift) & 0xFF, reference, expected);
+                    }
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Checks that a fully transparent foreground leaves the colour channels of the background unchanged.
+     * @param mode A Blend Mode whose neutral foreground value is 0.5.
+     * @param backend The backend to check.
+     * @return True if every background channel value is returned as is.
+     */
+    private static boolean transparentIdentity(BlendMode.Mode mode, Backend backend) {
+        int[][] results = results(mode, backend, 0);
+        for (int src = 0; src < 256; src++) {
+            for (int dest = 0; dest < 256; dest++) {
+                if ((results[src][dest] & 0xFFFFFF) != (gray(src) & 0xFFFFFF)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blends every channel pair with a backend. Each pixel carries the same value in all four channels.
+     * @param mode The Blend Mode to use.
+     * @param backend The backend to use.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @return Composite pixels indexed by src and dest channel value.
+     */
+    private static int[][] results(BlendMode.Mode mode, Backend backend, double opacity) {
+        int[][] results = new int[256][256];
+        boolean linear = backend.linear;
+        switch (backend.kernel) {
+            case PIXEL: {
+                int[] src = new int[256 * 256];
+                int[] dest = new int[256 * 256];
+                for (int i = 0; i < src.length; i++) {
+                    src[i] = gray(i >> 8);
+                    dest[i] = gray(i & 0xFF);
+                }
+                int[] result = new int[src.length];
+                BlendMode.blendPixels(src, dest, result, opacity, mode, linear);
+                for (int i = 0; i < result.length; i++) {
+                    results[i >> 8][i & 0xFF] = result[i];
+                }
+                break;
+            }
+            case RUN: {
+                int[] src = new int[256 * 256 * 2];
+                int[] dest = new int[256 * 256 * 2];
+                for (int i = 0; i < src.length; i++) {
+                    src[i] = gray(i >> 9);
+                    dest[i] = gray((i >> 1) & 0xFF);
+                }
+                int[] result = new int[src.length];
+                BlendMode.blendPixels(src, dest, result, opacity, mode, linear);
+                for (int i = 0; i < result.length; i += 2) {
+                    results[i >> 9][(i >> 1) & 0xFF] = result[i + 1];
+                }
+                break;
+            }
+            default: {
+                // Large enough to take the lookup table path, every channel value appears in the varying image
+                boolean uniformForeground = backend.kernel == Kernel.UNIFORM_FOREGROUND;
+                int[] varying = new int[256 * 8];
+                for (int i = 0; i < varying.length; i++) {
+                    varying[i] = gray(i & 0xFF);
+                }
+                int[] uniform = new int[varying.length];
+                int[] result = new int[varying.length];
+                for (int value = 0; value < 256; value++) {
+                    Arrays.fill(uniform, gray(value));
+                    if (uniformForeground) {
+                        BlendMode.blendPixels(varying, uniform, result, opacity, mode, linear);
+                    } else {
+                        BlendMode.blendPixels(uniform, varying, result, opacity, mode, linear);
+                    }
+                    for (int i = 0; i < 256; i++) {
+                        if (uniformForeground) {
+                            results[i][value] = result[i];
+                        } else {
+                            results[value][i] = result[i];
+                        }
+                    }
+                }
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Linear light reference using the exact sRGB transfer functions instead of lookup tables. Opacity blends the
+     * linear foreground value toward the neutral 0.5 of linear light, so an opacity of 0 leaves the contrast modes'
+     * background unchanged.
+     */
+    private static int referenceLinear(int src, int dest, double opacity, BlendMode.Mode mode) {
+        double destLinear = 0.5 - (0.5 * opacity) + (decode(dest / 255.0) * opacity);
+        double result = mode.calculate(decode(src / 255.0), destLinear);
+        if (!(result > 0)) {
+            return 0;
+        } else if (result >= 1) {
+            return 255;
+        }
+        return (int) Math.round(encode(result) * 255);
+    }
+
+    private static double decode(double value) {
+        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    private static double encode(double value) {
+        return value <= 0.0031308 ? value * 12.92 : 1.055 * Math.pow(value, 1 / 2.4) - 0.055;
+    }
+
+    private static int gray(int value) {
+        return (value << 24) | (value << 16) | (value << 8) | value;
+    }
+
+    /**
+     * Blends the golden images through the public API.
+     * @param mode The Blend Mode to use.
+     * @return Hashes of the noise and flat composites, followed by the same in linear light.
+     */
+    private static long[] golden(BlendMode.Mode mode) {
+        BufferedImage noise = goldenImage(2, false);
+        BufferedImage flat = goldenImage(3, true);
+        return new long[]{
+                hash(BlendMode.blend(goldenImage(1, false), noise, GOLDEN_OPACITY, mode)),
+                hash(BlendMode.blend(goldenImage(1, false), flat, GOLDEN_OPACITY, mode)),
+                hash(BlendMode.blendLinear(goldenImage(1, false), noise, GOLDEN_OPACITY, mode)),
+                hash(BlendMode.blendLinear(goldenImage(1, false), flat, GOLDEN_OPACITY, mode))
+        };
+    }
+
+    /**
+     * Blends the golden images as tiles, one task per worker, and compares the stitched result with the full
+     * composite. The background is an RGB image so the tiles keep its type.
+     * @param mode The Blend Mode to use.
+     * @param plan The tiling plan.
+     * @param linear True to blend in linear light.
+     * @param executor Runs the workers.
+     * @return True if the stitched composite matches.
+     */
+    private static boolean tiled(BlendMode.Mode mode, TilePlan plan, boolean linear, ExecutorService executor) {
+        BufferedImage bg = rgb(goldenImage(1, false));
+        BufferedImage fg = goldenImage(2, false);
+        BufferedImage full = linear
+                ? BlendMode.blendLinear(rgb(goldenImage(1, false)), fg, GOLDEN_OPACITY, mode)
+                : BlendMode.blend(rgb(goldenImage(1, false)), fg, GOLDEN_OPACITY, mode);
+
+        BufferedImage stitched = new BufferedImage(GOLDEN_SIZE, GOLDEN_SIZE, bg.getType());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            List<Rectangle> tiles = plan.tilesFor(worker, WORKERS);
+            workers.add(executor.submit(() -> {
+                for (Rectangle region : tiles) {
+                    BufferedImage tile = linear
+                            ? BlendMode.blendLinearRegion(bg, fg, GOLDEN_OPACITY, mode, region)
+                            : BlendMode.blendRegion(bg, fg, GOLDEN_OPACITY, mode, region);
+                    // Tiles never overlap, but the target image itself is not safe to write from several threads
+                    synchronized (stitched) {
+                        TilePlan.stitch(stitched, tile, region);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+        return hash(stitched) == hash(full);
+    }
+
+    private static BufferedImage rgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage rgb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        rgb.setRGB(0, 0, width, height, image.getRGB(0, 0, width, height, null, 0, width), 0, width);
+        return rgb;
+    }
+
+    /**
+     * Creates a seeded image with a mix of gradients and noise, or a single flat colour.
+     */
+    private static BufferedImage goldenImage(long seed, boolean flat) {
+        Random random = new Random(seed);
+        int color = random.nextInt();
+        BufferedImage image = new BufferedImage(GOLDEN_SIZE, GOLDEN_SIZE, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < GOLDEN_SIZE; y++) {
+            for (int x = 0; x < GOLDEN_SIZE; x++) {
+                if (flat) {
+                    image.setRGB(x, y, color);
+                } else if (x < GOLDEN_SIZE / 2) {
+                    image.setRGB(x, y, (((x + y) / 2) << 24) | (x << 16) | (y << 8) | ((x * y) & 0xFF));
+                } else {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+        }
+        return image;
+    }
+
+    private static long hash(BufferedImage image) {
+        return BlendCache.hash(image, image.getWidth(), image.getHeight());
+    }
+
+    private static void printGolden() {
+        for (BlendMode.Mode mode : BlendMode.Mode.values()) {
+            long[] hashes = golden(mode);
+            System.out.printf("        GOLDEN.put(BlendMode.Mode.%s,%n"
+                            + "                new long[]{0x%016xL, 0x%016xL, 0x%016xL, 0x%016xL});%n",
+                    mode, hashes[0], hashes[1], hashes[2], hashes[3]);
+        }
+    }
+
+    /**
+     * Accumulates the maximum and mean of channel errors, and the number of channels that drift from the kernel's
+     * expected result.
+     */
+    private static final class ErrorStats {
+        private int max;
+        private long sum;
+        private long count;
+        private long drift;
+
+        private void add(int actual, int reference, int expected) {
+            int error = Math.abs(actual - reference);
+            max = Math.max(max, error);
+            sum += error;
+            count++;
+            if (actual != expected) {
+                drift++;
+            }
+        }
+
+        private double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package BlendMode;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This file provides previews for interactive tools that change Blend Mode and opacity frequently. The background
+ * and foreground are downsampled once to 1/2, 1/4 and 1/8 of their size. A preview is blended at 1/8 size straight
+ * away and then refined to full resolution on a background thread. Requesting a new preview cancels any refinement
+ * that is still running for the previous parameters. Refinement is blended in bands of scanlines and checks for
+ * cancellation between bands.
+ */
+public class BlendPreview implements AutoCloseable {
+    /**
+     * Downsample factors of the pyramid levels, from the coarsest preview to full resolution.
+     */
+    private static final int[] SCALES = {8, 4, 2, 1};
+
+    /**
+     * Scanlines blended between cancellation checks during refinement.
+     */
+    private static final int BAND_ROWS = 64;
+
+    /**
+     * Receives each refined composite of a preview.
+     */
+    public interface RefinementListener {
+        /**
+         * Called on the refinement thread once a level has been blended.
+         * @param image The composite at this level. Owned by the listener.
+         * @param scale Downsample factor of the composite (4, 2 or 1 for full resolution).
+         */
+        void refined(BufferedImage image, int scale);
+    }
+
+    private final BufferedImage[] bgLevels = new BufferedImage[SCALES.length];
+    private final BufferedImage[] fgLevels = new BufferedImage[SCALES.length];
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService executor;
+    private Future<?> refinement;
+
+    /**
+     * Creates a preview for a pair of images and builds the downsampled levels. Both images are copied, so they may be
+     * changed or blended, e.g. to apply the final composite, while a refinement is still running.
+     * @param bg The image used as the background of the composite image. Not modified by previews.
+     * @param fg The image used as the foreground of the composite image. Has to be at least the size of bg.
+     */
+    public BlendPreview(BufferedImage bg, BufferedImage fg) {
+        int width = bg.getWidth();
+        int height = bg.getHeight();
+        int type = imageType(bg);
+
+        // Each level is a 2 x 2 box downsample of the level above, starting from the region of fg covered by bg
+        int[] bgPixels = bg.getRGB(0, 0, width, height, null, 0, width);
+        int[] fgPixels = fg.getRGB(0, 0, width, height, null, 0, width);
+
+        // The full resolution level is a snapshot too, as refinement reads it on the refinement thread
+        bgLevels[SCALES.length - 1] = copy(bg);
+        fgLevels[SCALES.length - 1] = image(fgPixels, width, height, BufferedImage.TYPE_INT_ARGB);
+        int levelWidth = width;
+        int levelHeight = height;
+        for (int level = SCALES.length - 2; level >= 0; level--) {
+            int nextWidth = Math.max(1, levelWidth / 2);
+            int nextHeight = Math.max(1, levelHeight / 2);
+            bgPixels = downsample(bgPixels, levelWidth, levelHeight, nextWidth, nextHeight);
+            fgPixels = downsample(fgPixels, levelWidth, levelHeight, nextWidth, nextHeight);
+            levelWidth = nextWidth;
+            levelHeight = nextHeight;
+            bgLevels[level] = image(bgPixels, levelWidth, levelHeight, type);
+            fgLevels[level] = image(fgPixels, levelWidth, levelHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "blend-preview");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method to create a preview composite. The 1/8 size composite is returned directly, the 1/4, 1/2 and full
+     * resolution composites are passed to the listener as they complete unless a newer preview is requested first.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param listener Receives the refined composites, or null to only create the low resolution preview.
+     * @return Returns a BufferedImage Composite at 1/8 of the background size.
+     */
+    public synchronized BufferedImage preview(double opacity, BlendMode.Mode mode, RefinementListener listener) {
+        long current = generation.incrementAndGet();
+        if (refinement != null) {
+            refinement.cancel(true);
+            refinement = null;
+        }
+
+        BufferedImage preview = blendLevel(0, opacity, mode);
+
+        if (listener != null) {
+            refinement = executor.submit(() -> {
+                for (int level = 1; level < SCALES.length; level++) {
+                    BufferedImage image = refineLevel(level, opacity, mode, current);
+                    checkCurrent(current);
+                    listener.refined(image, SCALES[level]);
+                }
+            });
+        }
+        return preview;
+    }
+
+    /**
+     * Cancels any running refinement and stops the refinement thread.
+     */
+    @Override
+    public synchronized void close() {
+        generation.incrementAndGet();
+        executor.shutdownNow();
+    }
+
+    private void checkCurrent(long current) {
+        if (generation.get() != current || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    private BufferedImage blendLevel(int level, double opacity, BlendMode.Mode mode) {
+        // BlendMode draws the composite onto the background, so each level is blended onto a copy
+        return BlendMode.blend(copy(bgLevels[level]), fgLevels[level], opacity, mode);
+    }
+
+    /**
+     * Blends a level in bands of scanlines, so a newer preview stops the refinement within one band.
+     * @param level Index of the pyramid level.
+     * @param opacity Opacity Percentage of the foreground image (0 100% Transparent - 1 100% Opaque)
+     * @param mode The Blend Mode used for the composite.
+     * @param current Generation of the preview being refined.
+     * @return The composite at this level.
+     * @throws CancellationException If a newer preview was requested.
+     */
+    private BufferedImage refineLevel(int level, double opacity, BlendMode.Mode mode, long current) {
+        BufferedImage bg = bgLevels[level];
+        BufferedImage fg = fgLevels[level];
+        int width = bg.getWidth();
+        int height = bg.getHeight();
+
+        BufferedImage image = new BufferedImage(bg.getColorModel(),
+                bg.getRaster().createCompatibleWritableRaster(width, height), bg.isAlphaPremultiplied(), null);
+        for (int row = 0; row < height; row += BAND_ROWS) {
+            checkCurrent(current);
+            int rows = Math.min(BAND_ROWS, height - row);
+            BufferedImage band = BlendMode.blendRows(bg, fg, opacity, mode, row, rows);
+            TilePlan.stitch(image, band, new Rectangle(0, row, width, rows));
+        }
+        return image;
+    }
+
+    private static int[] downsample(int[] pixels, int width, int height, int nextWidth, int nextHeight) {
+        int[] result = new int[nextWidth * nextHeight];
+        for (int y = 0; y < nextHeight; y++) {
+            int y0 = Math.min(y * 2, height - 1);
+            int y1 = Math.min(y * 2 + 1, height - 1);
+            for (int x = 0; x < nextWidth; x++) {
+                int x0 = Math.min(x * 2, width - 1);
+                int x1 = Math.min(x * 2 + 1, width - 1);
+                result[y * nextWidth + x] = average(pixels[y0 * width + x0], pixels[y0 * width + x1],
+                        pixels[y1 * width + x0], pixels[y1 * width + x1]);
+            }
+        }
+        return result;
+    }
+
+    private static int average(int a, int b, int c, int d) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((a >> shift) & 0xFF) + ((b >> shift) & 0xFF) + ((c >> shift) & 0xFF) + ((d >> shift) & 0xFF);
+            result |= ((sum + 2) >> 2) << shift;
+        }
+        return result;
+    }
+
+    private static int imageType(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : image.getType();
+    }
+
+    private static BufferedImage image(int[] pixels, int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+    }
+}
@@ -0,0 +1,115 @@
+package BlendMode;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This file provides deterministic tiling plans for splitting a composite across workers. Every plan covers the
+ * image exactly once without overlap, and the same arguments always produce the same tiles in the same order, so
+ * each worker can compute its own share of the plan. Tiles are blended with BlendMode.blendRegion and put back
+ * together with stitch.
+ */
+public class TilePlan {
+    private final List<Rectangle> tiles;
+
+    private TilePlan(List<Rectangle> tiles) {
+        this.tiles = Collections.unmodifiableList(tiles);
+    }
+
+    /**
+     * Creates a plan of fixed size tiles in row major order. Tiles in the last column and row are cut to the image.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param tileWidth Width of each tile.
+     * @param tileHeight Height of each tile.
+     * @return The tiling plan.
+     */
+    public static TilePlan grid(int width, int height, int tileWidth, int tileHeight) {
+        checkSize(width, height);
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileWidth + "x" + tileHeight);
+        }
+        List<Rectangle> tiles = new ArrayList<>();
+        for (int y = 0; y < height; y += tileHeight) {
+            for (int x = 0; x < width; x += tileWidth) {
+                tiles.add(new Rectangle(x, y, Math.min(tileWidth, width - x), Math.min(tileHeight, height - y)));
+            }
+        }
+        return new TilePlan(tiles);
+    }
+
+    /**
+     * Creates a plan of full width scanline ranges, from top to bottom. Row counts differ by at most one between
+     * ranges. If the image has fewer rows than requested ranges, each range is a single row.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param count Number of scanline ranges.
+     * @return The tiling plan.
+     */
+    public static TilePlan rows(int width, int height, int count) {
+        checkSize(width, height);
+        if (count <= 0) {
+            throw new IllegalArgumentException("Range count must be positive: " + count);
+        }
+        count = Math.min(count, height);
+        List<Rectangle> tiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int first = (int) ((long) height * i / count);
+            int next = (int) ((long) height * (i + 1) / count);
+            tiles.add(new Rectangle(0, first, width, next - first));
+        }
+        return new TilePlan(tiles);
+    }
+
+    /**
+     * @return All tiles of the plan, in plan order.
+     */
+    public List<Rectangle> tiles() {
+        return tiles;
+    }
+
+    /**
+     * Returns the tiles assigned to one of several workers. Tiles are dealt out in turn, so worker i receives
+     * tiles i, i + workers, i + 2 * workers and so on.
+     * @param worker Index of the worker (0 - workers - 1).
+     * @param workers Total number of workers.
+     * @return The worker's tiles, in plan order.
+     */
+    public List<Rectangle> tilesFor(int worker, int workers) {
+        if (workers <= 0 || worker < 0 || worker >= workers) {
+            throw new IllegalArgumentException("Invalid worker " + worker + " of " + workers);
+        }
+        List<Rectangle> share = new ArrayList<>();
+        for (int i = worker; i < tiles.size(); i += workers) {
+            share.add(tiles.get(i));
+        }
+        return share;
+    }
+
+    /**
+     * Copies a blended tile into its region of the target image.
+     * @param target The image the tiles are stitched into, usually of the same type as the background image.
+     * @param tile The tile returned by BlendMode.blendRegion.
+     * @param region The region the tile was blended from.
+     */
+    public static void stitch(BufferedImage target, BufferedImage tile, Rectangle region) {
+        if (tile.getWidth() != region.width || tile.getHeight() != region.height) {
+            throw new IllegalArgumentException("Tile size does not match region " + region);
+        }
+        if (target.getType() == tile.getType() && target.getType() != BufferedImage.TYPE_CUSTOM) {
+            target.getRaster().setRect(region.x, region.y, tile.getRaster());
+        } else {
+            int[] pixels = tile.getRGB(0, 0, region.width, region.height, null, 0, region.width);
+            target.setRGB(region.x, region.y, region.width, region.height, pixels, 0, region.width);
+        }
+    }
+
+    private static void checkSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+        }
+    }
+}